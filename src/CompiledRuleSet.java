@@ -0,0 +1,147 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Matchers compiled from a RuleSet. Immutable once built, so one instance can back many Lexers.
+class CompiledRuleSet {
+    private final RuleSet ruleSet;
+    private final List<TokenMatcher> matchers;
+    private final long tableBytes;
+
+    private CompiledRuleSet(RuleSet ruleSet, List<TokenMatcher> matchers) {
+        this.ruleSet = ruleSet;
+        this.matchers = Collections.unmodifiableList(matchers);
+        long bytes = 0;
+        for (TokenMatcher matcher : matchers) {
+            bytes += matcher.tableBytes();
+        }
+        this.tableBytes = bytes;
+    }
+
+    public static CompiledRuleSet compile(RuleSet ruleSet) {
+        return compile(ruleSet, Collections.emptyMap());
+    }
+
+    // Rules whose tables are in the frozen table file are served from the read-only mapping
+    // instead of being compiled again; the file must come from the same rule set
+    public static CompiledRuleSet compile(RuleSet ruleSet, Path frozenTables) throws IOException {
+        Map<Integer, TokenMatcher> prebuilt = new HashMap<>();
+        for (FrozenMatcher table : FrozenTables.mapAll(frozenTables, ruleSet.getHash())) {
+            prebuilt.put(table.getRuleIndex(), table);
+        }
+        return compile(ruleSet, prebuilt);
+    }
+
+    private static CompiledRuleSet compile(RuleSet ruleSet, Map<Integer, TokenMatcher> prebuilt) {
+        List<TokenMatcher> matchers = new ArrayList<>();
+        List<RegexRule> rules = ruleSet.getRules();
+        for (int i = 0; i < rules.size(); i++) {
+            RegexRule rule = rules.get(i);
+            TokenMatcher frozen = prebuilt.get(i);
+            if (frozen != null && frozen.getTokenType().equals(rule.getTokenType())) {
+                matchers.add(frozen);
+                continue;
+            }
+
+            LexerPhaseEvent event = new LexerPhaseEvent();
+            event.begin();
+            NFA newnfa = Thompson.regexToNFA(rule.getRegex());
+            newnfa.TOKEN_TYPE = rule.getTokenType();
+            commitPhase(event, "regexToNFA", newnfa.TOKEN_TYPE, newnfa.allStates.size());
+            matchers.add(buildMatcher(newnfa));
+        }
+        return new CompiledRuleSet(ruleSet, matchers);
+    }
+
+    // Moves every matcher's tables off-heap: table DFAs in BFS order, bit-parallel matchers as they are
+    public CompiledRuleSet freeze() {
+        return freeze(Collections.emptyList());
+    }
+
+    // Like freeze(), but states entered most often while matching the sample tokens come first
+    public CompiledRuleSet freeze(Collection<String> samples) {
+        List<TokenMatcher> frozen = new ArrayList<>();
+        for (int i = 0; i < matchers.size(); i++) {
+            TokenMatcher matcher = matchers.get(i);
+            if (matcher instanceof DFA) {
+                DFA dfa = (DFA) matcher;
+                frozen.add(FrozenDFA.freeze(dfa, i, samples.isEmpty() ? Collections.emptyMap() : dfa.profile(samples)));
+            } else if (matcher instanceof GlushkovMatcher) {
+                frozen.add(FrozenGlushkov.freeze((GlushkovMatcher) matcher, i));
+            } else {
+                frozen.add(matcher);
+            }
+        }
+        return new CompiledRuleSet(ruleSet, frozen);
+    }
+
+    // Writes the frozen tables so other processes can map them with compile(ruleSet, file)
+    public void writeFrozenTables(Path file) throws IOException {
+        List<FrozenMatcher> tables = new ArrayList<>();
+        for (TokenMatcher matcher : freeze().matchers) {
+            if (matcher instanceof FrozenMatcher) {
+                tables.add((FrozenMatcher) matcher);
+            }
+        }
+        FrozenTables.writeAll(ruleSet.getHash(), tables, file);
+    }
+
+    // Small rules get the bit-parallel engine; anything it cannot represent falls back to the table DFA
+    private static TokenMatcher buildMatcher(NFA nfa) {
+        LexerPhaseEvent event = new LexerPhaseEvent();
+        event.begin();
+        GlushkovMatcher glushkov = GlushkovMatcher.fromNFA(nfa);
+        if (glushkov != null) {
+            commitPhase(event, "glushkov", nfa.TOKEN_TYPE, glushkov.getPositionCount());
+            return glushkov;
+        }
+
+        event = new LexerPhaseEvent();
+        event.begin();
+        DFA newdfa = new DFA(nfa);
+        commitPhase(event, "subsetConstruction", nfa.TOKEN_TYPE, newdfa.getStateCount());
+
+        event = new LexerPhaseEvent();
+        event.begin();
+        newdfa.minimize();
+        commitPhase(event, "minimize", nfa.TOKEN_TYPE, newdfa.getStateCount());
+        newdfa.TOKEN_TYPE = nfa.TOKEN_TYPE;
+        return newdfa;
+    }
+
+    private static void commitPhase(LexerPhaseEvent event, String phase, String tokenType, int states) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase = phase;
+            event.tokenType = tokenType;
+            event.states = states;
+            event.commit();
+        }
+    }
+
+    public String getHash() {
+        return ruleSet.getHash();
+    }
+
+    public String getDelimiters() {
+        return ruleSet.getDelimiters();
+    }
+
+    public Set<String> getNonSymbolTypes() {
+        return ruleSet.getNonSymbolTypes();
+    }
+
+    public List<TokenMatcher> getMatchers() {
+        return matchers;
+    }
+
+    public long getTableBytes() {
+        return tableBytes;
+    }
+}
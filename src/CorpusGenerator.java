@@ -0,0 +1,131 @@
+import java.util.Random;
+
+class CorpusGenerator {
+    enum Mix {
+        DECLARATIONS,   // int/float/char/bool declarations and assignments
+        EXPRESSIONS,    // long operator chains
+        COMMENTS,       // mostly // and /* */ comments
+        MIXED,          // everything above
+        ADVERSARIAL     // unterminated /*, long digit runs, very long lines
+    }
+
+    private static final String[] DATATYPES = {"int", "float", "char", "bool"};
+    private static final String[] OPERATORS = {"=", "+", "-", "*", "/", "%", "^"};
+
+    private final Random random;
+    private int adversarialShape;
+
+    public CorpusGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    // Produces a program of roughly sizeBytes characters that the lexer accepts
+    public String generate(long sizeBytes, Mix mix) {
+        if (sizeBytes > Integer.MAX_VALUE - 1024) {
+            throw new IllegalArgumentException("Corpus size too large: " + sizeBytes);
+        }
+        StringBuilder sb = new StringBuilder((int) sizeBytes + 1024);
+        while (sb.length() < sizeBytes) {
+            Mix next = mix == Mix.MIXED ? Mix.values()[random.nextInt(3)] : mix;
+            switch (next) {
+                case DECLARATIONS -> appendDeclaration(sb);
+                case EXPRESSIONS -> appendExpression(sb);
+                case COMMENTS -> appendComment(sb);
+                case ADVERSARIAL -> appendAdversarial(sb, sizeBytes);
+                default -> throw new IllegalStateException("Unexpected mix: " + next);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    public static Mix parseMix(String name) {
+        return Mix.valueOf(name.toUpperCase());
+    }
+
+    private void appendDeclaration(StringBuilder sb) {
+        String type = DATATYPES[random.nextInt(DATATYPES.length)];
+        sb.append(type).append(' ').append(identifier()).append(" = ");
+        switch (type) {
+            case "int" -> sb.append(digits(1 + random.nextInt(6)));
+            case "float" -> sb.append(digits(1 + random.nextInt(4))).append('.').append(digits(1 + random.nextInt(4)));
+            case "char" -> sb.append('\'').append((char) ('a' + random.nextInt(26))).append('\'');
+            default -> sb.append(random.nextBoolean() ? "true" : "false");
+        }
+        sb.append(';');
+    }
+
+    private void appendExpression(StringBuilder sb) {
+        sb.append(identifier()).append(" = ");
+        int terms = 2 + random.nextInt(12);
+        for (int t = 0; t < terms; t++) {
+            if (t > 0) {
+                // '=' is skipped so the statement stays a single assignment
+                sb.append(' ').append(OPERATORS[1 + random.nextInt(OPERATORS.length - 1)]).append(' ');
+            }
+            if (random.nextInt(4) == 0) {
+                sb.append('(').append(identifier()).append(" + ").append(digits(2)).append(')');
+            } else if (random.nextBoolean()) {
+                sb.append(identifier());
+            } else {
+                sb.append(digits(1 + random.nextInt(5)));
+            }
+        }
+        sb.append(';');
+    }
+
+    private void appendComment(StringBuilder sb) {
+        if (random.nextBoolean()) {
+            sb.append("// ").append(words(4 + random.nextInt(12)));
+        } else {
+            sb.append("/* ").append(words(4 + random.nextInt(12))).append(" */");
+        }
+    }
+
+    private void appendAdversarial(StringBuilder sb, long sizeBytes) {
+        // Lines are capped at an eighth of the file and shapes rotate, so every file size gets all three
+        int lineLength = (int) Math.max(64, Math.min(sizeBytes / 8, 1 << 16));
+        switch (adversarialShape++ % 3) {
+            case 0 -> {
+                // Unterminated /* forces the multi-line comment DFA to scan to the end of the line
+                sb.append("/* ");
+                int end = sb.length() + lineLength;
+                while (sb.length() < end) {
+                    sb.append(identifier()).append(" = ").append(digits(3)).append(" + ");
+                }
+                sb.append(digits(1)).append(';');
+            }
+            case 1 -> sb.append(identifier()).append(" = ").append(digits(lineLength)).append(';');
+            default -> {
+                sb.append("float ").append(identifier()).append(" = ")
+                        .append(digits(lineLength / 2)).append('.').append(digits(lineLength / 2)).append(';');
+            }
+        }
+    }
+
+    private String identifier() {
+        int length = 1 + random.nextInt(8);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+
+    private String digits(int count) {
+        StringBuilder sb = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            sb.append((char) ('0' + random.nextInt(10)));
+        }
+        return sb.toString();
+    }
+
+    private String words(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(identifier());
+        }
+        return sb.toString();
+    }
+}
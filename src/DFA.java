@@ -1,6 +1,6 @@
 import java.util.*;
 
-class DFA {
+class DFA implements TokenMatcher {
     private State startState;
     private Set<State> allStates;
     private Map<Set<State>, State> stateMapping;
@@ -156,9 +156,14 @@ class DFA {
     }
 
     public MatchResult match(String input) {
+        return match(input, 0);
+    }
+
+    @Override
+    public MatchResult match(String input, int start) {
         State currentState = startState;
         int matchLength = 0;  // Length of the longest accepted token
-        int i = 0;
+        int i = start;
 
         for (; i < input.length(); i++) {
             char symbol = input.charAt(i);
@@ -170,13 +175,60 @@ class DFA {
             currentState = currentState.transitions.get(symbol).get(0); // Move to next state
 
             if (currentState.isFinal) {
-                matchLength = i + 1; // Update match length when reaching a final state
+                matchLength = i - start + 1; // Update match length when reaching a final state
             }
         }
 
+        if (LexerMetrics.ENABLED) LexerMetrics.INSTANCE.recordMatch(i - start, matchLength);
         return new MatchResult(matchLength > 0, matchLength);
     }
 
+    @Override
+    public long tableBytes() {
+        // State object and its HashMap, plus a map entry, boxed key and one-element list per transition
+        long bytes = 0;
+        for (State state : allStates) {
+            bytes += 64 + state.transitions.size() * 80L;
+        }
+        return bytes;
+    }
+
+    @Override
+    public String getTokenType() {
+        return TOKEN_TYPE;
+    }
+
+    State getStartState() {
+        return startState;
+    }
+
+    Set<State> getStates() {
+        return Collections.unmodifiableSet(allStates);
+    }
+
+    // Counts how often each state is entered while matching the samples, for hot-first layouts
+    public Map<State, Long> profile(Collection<String> samples) {
+        Map<State, Long> visits = new HashMap<>();
+        for (String sample : samples) {
+            State currentState = startState;
+            visits.merge(currentState, 1L, Long::sum);
+            for (int i = 0; i < sample.length(); i++) {
+                List<State> next = currentState.transitions.get(sample.charAt(i));
+                if (next == null) {
+                    break;
+                }
+                currentState = next.get(0);
+                visits.merge(currentState, 1L, Long::sum);
+            }
+        }
+        return visits;
+    }
+
+    public int getStateCount() {
+        return allStates.size();
+    }
+
+    @Override
     public void printTransitionTable() {
         System.out.println("DFA Transition Table:");
         System.out.println("Start State: ");
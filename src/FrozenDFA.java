@@ -0,0 +1,222 @@
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// A minimized DFA frozen into a flat off-heap table. States are renumbered in BFS order
+// from the start state (or hottest first when a profile is given) so that rows on common
+// paths sit next to each other, and characters are folded into equivalence classes to keep
+// rows narrow. FrozenTables writes the segment to a file that every worker process maps
+// read-only, so they share one physical copy through the page cache.
+//
+// Segment layout, little-endian, 32-byte header of ints:
+//   magic, version, rule index, state count, class count, class map size, start state, token type bytes
+//   class map:   one char per input character below the class map size, 0 = no transition anywhere
+//   transitions: state count x class count ints; 0 = no transition, else ((target + 1) << 1) | final
+//   token type:  UTF-8 bytes
+class FrozenDFA implements FrozenMatcher {
+    static final int MAGIC = 0x46444641; // "FDFA"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private static final ValueLayout.OfInt INT = FrozenTables.INT;
+    private static final ValueLayout.OfChar CHAR = ValueLayout.JAVA_CHAR.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private final MemorySegment segment;
+    private final MemorySegment classMap;
+    private final MemorySegment transitions;
+    private final int ruleIndex;
+    private final int stateCount;
+    private final int classCount;
+    private final int classMapSize;
+    private final int startState;
+    private final String tokenType;
+
+    FrozenDFA(MemorySegment segment) {
+        if (segment.get(INT, 0) != MAGIC || segment.get(INT, 4) != VERSION) {
+            throw new IllegalArgumentException("Not a frozen DFA segment");
+        }
+        this.segment = segment;
+        this.ruleIndex = segment.get(INT, 8);
+        this.stateCount = segment.get(INT, 12);
+        this.classCount = segment.get(INT, 16);
+        this.classMapSize = segment.get(INT, 20);
+        this.startState = segment.get(INT, 24);
+        int tokenTypeBytes = segment.get(INT, 28);
+
+        long transitionsOffset = HEADER_BYTES + classMapSize * 2L;
+        long transitionsBytes = (long) stateCount * classCount * 4L;
+        this.classMap = segment.asSlice(HEADER_BYTES, classMapSize * 2L);
+        this.transitions = segment.asSlice(transitionsOffset, transitionsBytes);
+        byte[] type = segment.asSlice(transitionsOffset + transitionsBytes, tokenTypeBytes).toArray(ValueLayout.JAVA_BYTE);
+        this.tokenType = new String(type, StandardCharsets.UTF_8);
+    }
+
+    public static FrozenDFA freeze(DFA dfa, int ruleIndex) {
+        return freeze(dfa, ruleIndex, Collections.emptyMap());
+    }
+
+    // States with more visits in the profile get lower ids; unprofiled states keep BFS order
+    public static FrozenDFA freeze(DFA dfa, int ruleIndex, Map<State, Long> profile) {
+        List<State> order = bfsOrder(dfa);
+        if (!profile.isEmpty()) {
+            Map<State, Integer> bfsIndex = new HashMap<>();
+            for (State state : order) {
+                bfsIndex.put(state, bfsIndex.size());
+            }
+            order.sort(Comparator.<State>comparingLong(state -> -profile.getOrDefault(state, 0L))
+                    .thenComparing(bfsIndex::get));
+        }
+        Map<State, Integer> ids = new HashMap<>();
+        for (State state : order) {
+            ids.put(state, ids.size());
+        }
+
+        int classMapSize = 128;
+        for (State state : order) {
+            for (char symbol : state.transitions.keySet()) {
+                if (symbol >= classMapSize) classMapSize = Character.MAX_VALUE + 1;
+            }
+        }
+
+        // Characters whose column is identical in every state share a class; class 0 is the all-dead column
+        Map<List<Integer>, Integer> classes = new HashMap<>();
+        classes.put(Collections.nCopies(order.size(), 0), 0);
+        char[] charClasses = new char[classMapSize];
+        List<int[]> columns = new ArrayList<>();
+        columns.add(new int[order.size()]);
+        for (int c = 0; c < classMapSize; c++) {
+            if (c == '\0') continue; // '\0' marks epsilon moves and never appears in a DFA
+            List<Integer> column = new ArrayList<>(order.size());
+            for (State state : order) {
+                List<State> next = state.transitions.get((char) c);
+                column.add(next == null ? 0 : ((ids.get(next.get(0)) + 1) << 1) | (next.get(0).isFinal ? 1 : 0));
+            }
+            Integer classId = classes.get(column);
+            if (classId == null) {
+                classId = classes.size();
+                if (classId > Character.MAX_VALUE) {
+                    throw new IllegalArgumentException("Too many character classes to freeze DFA for " + dfa.TOKEN_TYPE);
+                }
+                classes.put(column, classId);
+                columns.add(column.stream().mapToInt(Integer::intValue).toArray());
+            }
+            charClasses[c] = (char) (int) classId;
+        }
+
+        byte[] type = dfa.TOKEN_TYPE.getBytes(StandardCharsets.UTF_8);
+        int classCount = columns.size();
+        long transitionsOffset = HEADER_BYTES + classMapSize * 2L;
+        long size = transitionsOffset + (long) order.size() * classCount * 4L + type.length;
+
+        MemorySegment segment = Arena.ofAuto().allocate(size, 8);
+        segment.set(INT, 0, MAGIC);
+        segment.set(INT, 4, VERSION);
+        segment.set(INT, 8, ruleIndex);
+        segment.set(INT, 12, order.size());
+        segment.set(INT, 16, classCount);
+        segment.set(INT, 20, classMapSize);
+        segment.set(INT, 24, ids.get(dfa.getStartState()));
+        segment.set(INT, 28, type.length);
+        for (int c = 0; c < classMapSize; c++) {
+            segment.set(CHAR, HEADER_BYTES + c * 2L, charClasses[c]);
+        }
+        for (int s = 0; s < order.size(); s++) {
+            long row = transitionsOffset + (long) s * classCount * 4L;
+            for (int k = 0; k < classCount; k++) {
+                segment.set(INT, row + k * 4L, columns.get(k)[s]);
+            }
+        }
+        MemorySegment.copy(type, 0, segment, ValueLayout.JAVA_BYTE, size - type.length, type.length);
+        return new FrozenDFA(segment);
+    }
+
+    private static List<State> bfsOrder(DFA dfa) {
+        List<State> order = new ArrayList<>();
+        Set<State> seen = new HashSet<>();
+        Queue<State> queue = new LinkedList<>();
+        queue.add(dfa.getStartState());
+        seen.add(dfa.getStartState());
+        while (!queue.isEmpty()) {
+            State state = queue.poll();
+            order.add(state);
+            // Visit successors in character order so the layout does not depend on HashMap iteration
+            for (char symbol : new TreeSet<>(state.transitions.keySet())) {
+                State next = state.transitions.get(symbol).get(0);
+                if (seen.add(next)) queue.add(next);
+            }
+        }
+        return order;
+    }
+
+    @Override
+    public MatchResult match(String input, int start) {
+        int state = startState;
+        int matchLength = 0;
+        int i = start;
+
+        for (; i < input.length(); i++) {
+            char symbol = input.charAt(i);
+            int symbolClass = symbol < classMapSize ? classMap.getAtIndex(CHAR, symbol) : 0;
+            int entry = transitions.getAtIndex(INT, (long) state * classCount + symbolClass);
+            if (entry == 0) {
+                break; // Stop at the first invalid transition
+            }
+            state = (entry >>> 1) - 1;
+            if ((entry & 1) != 0) {
+                matchLength = i - start + 1;
+            }
+        }
+
+        if (LexerMetrics.ENABLED) LexerMetrics.INSTANCE.recordMatch(i - start, matchLength);
+        return new MatchResult(matchLength > 0, matchLength);
+    }
+
+    @Override
+    public MemorySegment segment() {
+        return segment;
+    }
+
+    @Override
+    public int getRuleIndex() {
+        return ruleIndex;
+    }
+
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    @Override
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    // Off-heap bytes; the Java object holding the segment is negligible
+    @Override
+    public long tableBytes() {
+        return segment.byteSize();
+    }
+
+    @Override
+    public void printTransitionTable() {
+        System.out.println("Frozen DFA Transition Table:");
+        System.out.println("States: " + stateCount + ", character classes: " + classCount);
+        System.out.println("Start State: ");
+        System.out.println(startState);
+        for (int s = 0; s < stateCount; s++) {
+            for (int c = 1; c < classMapSize; c++) {
+                int entry = transitions.getAtIndex(INT, (long) s * classCount + classMap.getAtIndex(CHAR, c));
+                if (entry != 0) {
+                    System.out.println("State " + s + " --[" + (char) c + "]--> State " + ((entry >>> 1) - 1)
+                            + ((entry & 1) != 0 ? " (final)" : ""));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+
+// A bit-parallel Glushkov matcher frozen into a flat off-heap segment, so rules that never
+// reach the table DFA can still be shared read-only through a FrozenTables file.
+//
+// Segment layout, little-endian, 32-byte header of ints:
+//   magic, version, rule index, position count, follow chunk count, token type bytes, 2 x reserved
+//   masks:        initial, final (longs)
+//   char masks:   128 longs, positions that consume each ASCII character
+//   follow:       chunk count x 256 longs, OR of follow sets per byte of the position mask
+//   token type:   UTF-8 bytes
+class FrozenGlushkov implements FrozenMatcher {
+    static final int MAGIC = 0x46474c55; // "FGLU"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int ALPHABET = 128;
+    private static final long CHAR_MASKS_OFFSET = HEADER_BYTES + 16;
+    private static final long FOLLOW_OFFSET = CHAR_MASKS_OFFSET + ALPHABET * 8L;
+
+    private static final ValueLayout.OfInt INT = FrozenTables.INT;
+    private static final ValueLayout.OfLong LONG = FrozenTables.LONG;
+
+    private final MemorySegment segment;
+    private final MemorySegment charMasks;
+    private final MemorySegment followTables;
+    private final long initial;
+    private final long finalMask;
+    private final int ruleIndex;
+    private final int positionCount;
+    private final int chunkCount;
+    private final String tokenType;
+
+    FrozenGlushkov(MemorySegment segment) {
+        if (segment.get(INT, 0) != MAGIC || segment.get(INT, 4) != VERSION) {
+            throw new IllegalArgumentException("Not a frozen Glushkov segment");
+        }
+        this.segment = segment;
+        this.ruleIndex = segment.get(INT, 8);
+        this.positionCount = segment.get(INT, 12);
+        this.chunkCount = segment.get(INT, 16);
+        int tokenTypeBytes = segment.get(INT, 20);
+        this.initial = segment.get(LONG, HEADER_BYTES);
+        this.finalMask = segment.get(LONG, HEADER_BYTES + 8);
+
+        long followBytes = chunkCount * 256L * 8L;
+        this.charMasks = segment.asSlice(CHAR_MASKS_OFFSET, ALPHABET * 8L);
+        this.followTables = segment.asSlice(FOLLOW_OFFSET, followBytes);
+        byte[] type = segment.asSlice(FOLLOW_OFFSET + followBytes, tokenTypeBytes).toArray(ValueLayout.JAVA_BYTE);
+        this.tokenType = new String(type, StandardCharsets.UTF_8);
+    }
+
+    public static FrozenGlushkov freeze(GlushkovMatcher matcher, int ruleIndex) {
+        long[] masks = matcher.getCharMasks();
+        long[][] follow = matcher.getFollowTables();
+        byte[] type = matcher.getTokenType().getBytes(StandardCharsets.UTF_8);
+        long followBytes = follow.length * 256L * 8L;
+        long size = FOLLOW_OFFSET + followBytes + type.length;
+
+        MemorySegment segment = Arena.ofAuto().allocate(size, 8);
+        segment.set(INT, 0, MAGIC);
+        segment.set(INT, 4, VERSION);
+        segment.set(INT, 8, ruleIndex);
+        segment.set(INT, 12, matcher.getPositionCount());
+        segment.set(INT, 16, follow.length);
+        segment.set(INT, 20, type.length);
+        segment.set(LONG, HEADER_BYTES, matcher.getInitial());
+        segment.set(LONG, HEADER_BYTES + 8, matcher.getFinalMask());
+        for (int c = 0; c < ALPHABET; c++) {
+            segment.set(LONG, CHAR_MASKS_OFFSET + c * 8L, masks[c]);
+        }
+        for (int chunk = 0; chunk < follow.length; chunk++) {
+            for (int bits = 0; bits < 256; bits++) {
+                segment.set(LONG, FOLLOW_OFFSET + (chunk * 256L + bits) * 8L, follow[chunk][bits]);
+            }
+        }
+        MemorySegment.copy(type, 0, segment, ValueLayout.JAVA_BYTE, size - type.length, type.length);
+        return new FrozenGlushkov(segment);
+    }
+
+    @Override
+    public MatchResult match(String input, int start) {
+        long active = initial;
+        int matchLength = 0;
+        int i = start;
+
+        for (; active != 0 && i < input.length(); i++) {
+            char symbol = input.charAt(i);
+            long consumed = active & (symbol < ALPHABET ? charMasks.getAtIndex(LONG, symbol) : 0L);
+            if (consumed == 0) {
+                break; // No position accepts this character
+            }
+            if ((consumed & finalMask) != 0) {
+                matchLength = i - start + 1;
+            }
+            active = follow(consumed);
+        }
+
+        if (LexerMetrics.ENABLED) LexerMetrics.INSTANCE.recordMatch(i - start, matchLength);
+        return new MatchResult(matchLength > 0, matchLength);
+    }
+
+    private long follow(long consumed) {
+        long next = 0;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            next |= followTables.getAtIndex(LONG, (chunk << 8) | ((int) (consumed >>> (chunk << 3)) & 0xFF));
+        }
+        return next;
+    }
+
+    @Override
+    public MemorySegment segment() {
+        return segment;
+    }
+
+    @Override
+    public int getRuleIndex() {
+        return ruleIndex;
+    }
+
+    public int getPositionCount() {
+        return positionCount;
+    }
+
+    @Override
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    // Off-heap bytes; the Java object holding the segment is negligible
+    @Override
+    public long tableBytes() {
+        return segment.byteSize();
+    }
+
+    @Override
+    public void printTransitionTable() {
+        System.out.println("Frozen Bit-parallel Glushkov Matcher:");
+        System.out.println("Positions: " + positionCount);
+        System.out.println("Initial: " + Long.toBinaryString(initial));
+        System.out.println("Final: " + Long.toBinaryString(finalMask));
+        for (int c = 0; c < ALPHABET; c++) {
+            long mask = charMasks.getAtIndex(LONG, c);
+            if (mask != 0) {
+                System.out.println("[" + (char) c + "] " + Long.toBinaryString(mask));
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+import java.lang.foreign.MemorySegment;
+
+// A matcher whose tables live in one self-describing off-heap segment, so FrozenTables
+// can write it to a file and map it back without knowing which engine produced it
+interface FrozenMatcher extends TokenMatcher {
+    int getRuleIndex();
+
+    MemorySegment segment();
+}
@@ -0,0 +1,105 @@
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Shared file of frozen matcher segments, written once and mapped read-only by every worker
+// process so they share one physical copy through the page cache. Each segment starts with
+// its engine's magic, which picks the class that reads it back.
+//
+// File layout: magic, version, count, reserved (ints), the rule set hash as 64 ASCII bytes,
+// then an (offset, length) pair of longs per table, then the 8-byte aligned table segments.
+class FrozenTables {
+    static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private static final int FILE_MAGIC = 0x46444653; // "FDFS"
+    private static final int VERSION = 2;
+    private static final int HASH_BYTES = 64;
+    // Readers in other processes usually run as other users; createTempFile alone would leave the file 0600
+    private static final Set<PosixFilePermission> FILE_PERMISSIONS = PosixFilePermissions.fromString("rw-r--r--");
+
+    // The file is written to a temporary name and moved into place so readers never see it half-written
+    public static void writeAll(String hash, List<? extends FrozenMatcher> tables, Path file) throws IOException {
+        byte[] hashBytes = hash.getBytes(StandardCharsets.US_ASCII);
+        if (hashBytes.length != HASH_BYTES) {
+            throw new IllegalArgumentException("Expected a SHA-256 hex hash, got " + hash);
+        }
+        long indexOffset = 16 + HASH_BYTES;
+        long offset = indexOffset + tables.size() * 16L;
+        long[] offsets = new long[tables.size()];
+        for (int t = 0; t < tables.size(); t++) {
+            offset = (offset + 7) & ~7L;
+            offsets[t] = offset;
+            offset += tables.get(t).segment().byteSize();
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            if (Files.getFileStore(temp).supportsFileAttributeView("posix")) {
+                Files.setPosixFilePermissions(temp, FILE_PERMISSIONS);
+            }
+            try (Arena arena = Arena.ofConfined();
+                 FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MemorySegment out = channel.map(FileChannel.MapMode.READ_WRITE, 0, offset, arena);
+                out.set(INT, 0, FILE_MAGIC);
+                out.set(INT, 4, VERSION);
+                out.set(INT, 8, tables.size());
+                MemorySegment.copy(hashBytes, 0, out, ValueLayout.JAVA_BYTE, 16, HASH_BYTES);
+                for (int t = 0; t < tables.size(); t++) {
+                    MemorySegment table = tables.get(t).segment();
+                    out.set(LONG, indexOffset + t * 16L, offsets[t]);
+                    out.set(LONG, indexOffset + t * 16L + 8, table.byteSize());
+                    MemorySegment.copy(table, 0, out, offsets[t], table.byteSize());
+                }
+                out.force();
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Maps a file from writeAll read-only. The mapping lives as long as any returned table is reachable.
+    public static List<FrozenMatcher> mapAll(Path file, String expectedHash) throws IOException {
+        MemorySegment in;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), Arena.ofAuto()).asReadOnly();
+        }
+        if (in.byteSize() < 16 + HASH_BYTES || in.get(INT, 0) != FILE_MAGIC || in.get(INT, 4) != VERSION) {
+            throw new IOException("Not a frozen table file: " + file);
+        }
+        String hash = new String(in.asSlice(16, HASH_BYTES).toArray(ValueLayout.JAVA_BYTE), StandardCharsets.US_ASCII);
+        if (!hash.equals(expectedHash)) {
+            throw new IOException("Frozen tables in " + file + " were built from a different rule set");
+        }
+
+        int count = in.get(INT, 8);
+        long indexOffset = 16 + HASH_BYTES;
+        List<FrozenMatcher> tables = new ArrayList<>(count);
+        for (int t = 0; t < count; t++) {
+            long offset = in.get(LONG, indexOffset + t * 16L);
+            long length = in.get(LONG, indexOffset + t * 16L + 8);
+            MemorySegment segment = in.asSlice(offset, length);
+            switch (segment.get(INT, 0)) {
+                case FrozenDFA.MAGIC -> tables.add(new FrozenDFA(segment));
+                case FrozenGlushkov.MAGIC -> tables.add(new FrozenGlushkov(segment));
+                default -> throw new IOException("Unknown table " + t + " in " + file);
+            }
+        }
+        return tables;
+    }
+}
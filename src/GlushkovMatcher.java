@@ -0,0 +1,188 @@
+import java.util.*;
+
+// Bit-parallel matcher for small rules. Every NFA state that consumes a character is a
+// Glushkov position; the set of positions that may consume the next character lives in
+// one long, so a step is a mask lookup plus a few follow-table lookups, with no
+// allocation and no subset construction.
+class GlushkovMatcher implements TokenMatcher {
+    static final int MAX_POSITIONS = 64;
+    private static final int ALPHABET = 128;
+
+    private final long[] charMasks;                      // positions that consume each character
+    private final long[][] followTables;                 // per byte of the position mask: OR of follow sets
+    private final long initial;                          // positions reachable before any input
+    private final long finalMask;                        // positions whose consumption reaches a final state
+    private final int positionCount;
+    String TOKEN_TYPE;
+
+    private GlushkovMatcher(long[] charMasks, long initial, long finalMask, long[] follow, int positionCount) {
+        this.charMasks = charMasks;
+        this.initial = initial;
+        this.finalMask = finalMask;
+        this.positionCount = positionCount;
+
+        followTables = new long[(positionCount + 7) / 8][256];
+        for (int chunk = 0; chunk < followTables.length; chunk++) {
+            for (int bits = 1; bits < 256; bits++) {
+                int low = Integer.numberOfTrailingZeros(bits);
+                int position = chunk * 8 + low;
+                long lowFollow = position < positionCount ? follow[position] : 0L;
+                followTables[chunk][bits] = followTables[chunk][bits & (bits - 1)] | lowFollow;
+            }
+        }
+    }
+
+    // Returns null when the NFA has more than MAX_POSITIONS positions, a position whose
+    // characters lead to different states, or non-ASCII symbols; those rules use the DFA
+    public static GlushkovMatcher fromNFA(NFA nfa) {
+        List<State> positions = new ArrayList<>();
+        Set<State> seen = new HashSet<>();
+        Deque<State> pending = new ArrayDeque<>();
+        pending.add(nfa.startState);
+        seen.add(nfa.startState);
+        while (!pending.isEmpty()) {
+            State state = pending.poll();
+            for (Map.Entry<Character, List<State>> entry : state.transitions.entrySet()) {
+                for (State next : entry.getValue()) {
+                    if (seen.add(next)) pending.add(next);
+                }
+            }
+            if (state.transitions.keySet().stream().anyMatch(symbol -> symbol != '\0')) {
+                positions.add(state);
+            }
+        }
+        if (positions.size() > MAX_POSITIONS) {
+            return null;
+        }
+
+        Map<State, Integer> positionIds = new HashMap<>();
+        for (State position : positions) {
+            positionIds.put(position, positionIds.size());
+        }
+
+        long[] follow = new long[positions.size()];
+        long finalMask = 0;
+        long[] charMasks = new long[ALPHABET];
+        for (int p = 0; p < positions.size(); p++) {
+            State target = null;
+            for (Map.Entry<Character, List<State>> entry : positions.get(p).transitions.entrySet()) {
+                char symbol = entry.getKey();
+                if (symbol == '\0') continue;
+                if (symbol >= ALPHABET) return null;
+                for (State next : entry.getValue()) {
+                    if (target != null && target != next) return null;
+                    target = next;
+                }
+                charMasks[symbol] |= 1L << p;
+            }
+
+            Set<State> closure = epsilonClosure(target);
+            follow[p] = positionMask(closure, positionIds);
+            if (closure.stream().anyMatch(s -> s.isFinal)) {
+                finalMask |= 1L << p;
+            }
+        }
+
+        long initial = positionMask(epsilonClosure(nfa.startState), positionIds);
+        GlushkovMatcher matcher = new GlushkovMatcher(charMasks, initial, finalMask, follow, positions.size());
+        matcher.TOKEN_TYPE = nfa.TOKEN_TYPE;
+        return matcher;
+    }
+
+    private static Set<State> epsilonClosure(State state) {
+        Set<State> closure = new HashSet<>();
+        Stack<State> stack = new Stack<>();
+        closure.add(state);
+        stack.push(state);
+        while (!stack.isEmpty()) {
+            State current = stack.pop();
+            for (State next : current.transitions.getOrDefault('\0', List.of())) {
+                if (closure.add(next)) stack.push(next);
+            }
+        }
+        return closure;
+    }
+
+    private static long positionMask(Set<State> states, Map<State, Integer> positionIds) {
+        long mask = 0;
+        for (State state : states) {
+            Integer id = positionIds.get(state);
+            if (id != null) mask |= 1L << id;
+        }
+        return mask;
+    }
+
+    @Override
+    public MatchResult match(String input, int start) {
+        long active = initial;
+        int matchLength = 0;
+        int i = start;
+
+        for (; active != 0 && i < input.length(); i++) {
+            char symbol = input.charAt(i);
+            long consumed = active & (symbol < ALPHABET ? charMasks[symbol] : 0L);
+            if (consumed == 0) {
+                break; // No position accepts this character
+            }
+            if ((consumed & finalMask) != 0) {
+                matchLength = i - start + 1;
+            }
+            active = follow(consumed);
+        }
+
+        if (LexerMetrics.ENABLED) LexerMetrics.INSTANCE.recordMatch(i - start, matchLength);
+        return new MatchResult(matchLength > 0, matchLength);
+    }
+
+    private long follow(long consumed) {
+        long next = 0;
+        for (int chunk = 0; chunk < followTables.length; chunk++) {
+            next |= followTables[chunk][(int) (consumed >>> (chunk << 3)) & 0xFF];
+        }
+        return next;
+    }
+
+    public int getPositionCount() {
+        return positionCount;
+    }
+
+    // Raw tables for FrozenGlushkov; callers must not modify them
+    long[] getCharMasks() {
+        return charMasks;
+    }
+
+    long[][] getFollowTables() {
+        return followTables;
+    }
+
+    long getInitial() {
+        return initial;
+    }
+
+    long getFinalMask() {
+        return finalMask;
+    }
+
+    @Override
+    public long tableBytes() {
+        return 16L + charMasks.length * 8L + followTables.length * (16L + 256 * 8L);
+    }
+
+    @Override
+    public String getTokenType() {
+        return TOKEN_TYPE;
+    }
+
+    @Override
+    public void printTransitionTable() {
+        System.out.println("Bit-parallel Glushkov Matcher:");
+        System.out.println("Positions: " + positionCount);
+        System.out.println("Initial: " + Long.toBinaryString(initial));
+        System.out.println("Final: " + Long.toBinaryString(finalMask));
+        for (int c = 0; c < ALPHABET; c++) {
+            if (charMasks[c] != 0) {
+                System.out.println("[" + (char) c + "] " + Long.toBinaryString(charMasks[c]));
+            }
+        }
+    }
+}
@@ -1,4 +1,8 @@
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 class Lexer {
@@ -28,12 +32,26 @@ class Lexer {
             "MULTI_COMMENT"    // Matches /* ... */ comments
     );
 
-    private List<DFA> dfas;
+    static final String DEFAULT_DELIMITERS = ";,(){}";
+    static final List<String> DEFAULT_NON_SYMBOL_TYPES = Arrays.asList("COMMENT", "MULTI_COMMENT");
+
+    private final List<TokenMatcher> matchers;
+    private final String delimiters;
+    private final Set<String> nonSymbolTypes;
 
     public Lexer() {
-        InitializeLexer();
+        this(RuleSet.defaults().compile());
+        printTransitionTables();
+    }
+
+    // Lexers built from the same compiled rules share their matchers but keep their own symbol table
+    public Lexer(CompiledRuleSet rules) {
+        this.matchers = rules.getMatchers();
+        this.delimiters = rules.getDelimiters();
+        this.nonSymbolTypes = rules.getNonSymbolTypes();
     }
-    public void InitializeLexer(){
+
+    static List<RegexRule> defaultRules() {
         List<RegexRule> regexRules = new ArrayList<>();
         for (int i = 0; i < REGEX_PATTERNS.size(); i++) {
             String pattern = REGEX_PATTERNS.get(i);
@@ -42,76 +60,96 @@ class Lexer {
             RegexRule newRule = new RegexRule(pattern,token);
             regexRules.add(newRule);
         }
+        return regexRules;
+    }
 
-        List<NFA> nfas = new ArrayList<>();
-        for (RegexRule rule : regexRules) {
-            NFA newnfa = Thompson.regexToNFA(rule.getRegex());
-            newnfa.TOKEN_TYPE = rule.getTokenType();
-            nfas.add(newnfa);
-        }
-
-        dfas = new ArrayList<>();
-        for (NFA nfa : nfas) {
-            DFA newdfa = new DFA(nfa);
-            newdfa.minimize();
-            newdfa.TOKEN_TYPE = nfa.TOKEN_TYPE;
-            dfas.add(newdfa);
-            System.out.println(newdfa.TOKEN_TYPE);
-            newdfa.printTransitionTable();
+    public void printTransitionTables() {
+        for (TokenMatcher matcher : matchers) {
+            System.out.println(matcher.getTokenType());
+            matcher.printTransitionTable();
             System.out.println();
         }
     }
 
     public List<Token> tokenize(String code) {
+        LexerTokenizeEvent event = new LexerTokenizeEvent();
+        event.begin();
         List<Token> tokens = new ArrayList<>();
         int i = 0;
+        Token token;
 
-        while (i < code.length()) {
-            // Skip whitespace before processing tokens
-            if (Character.isWhitespace(code.charAt(i))) {
-                i++;
-                continue;
-            }
-
-            String match = null;
-            String tokenType = null;
-            int maxLength = 0;
-
-            // Check delimiters separately
-            if (";,(){}".contains(String.valueOf(code.charAt(i)))) {
-                String delimiter = String.valueOf(code.charAt(i));
-                tokens.add(new Token("DELIMITER", String.valueOf(code.charAt(i))));
-                symbolTable.insert(delimiter, "DELIMITER");
-                i++;
-                continue;
-            }
+        while ((token = nextToken(code, i)) != null) {
+            tokens.add(token);
+            i = token.getOffset() + token.getValue().length();
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.bytes = code.length();
+            event.tokens = tokens.size();
+            event.commit();
+        }
+        return tokens;
+    }
 
-            // Try to match with DFA for longest possible token
-            for (DFA dfa : dfas) {
-                MatchResult result = dfa.match(code.substring(i));
+    // Lazily lexes code one token at a time; the stream stops lexing as soon as it is short-circuited
+    public Stream<Token> tokens(String code) {
+        return StreamSupport.stream(new TokenSpliterator(this, code), false);
+    }
 
-                if (result.isMatched() && result.getLength() > maxLength) {
-                    maxLength = result.getLength();
-                    match = code.substring(i, i + maxLength);
-                    tokenType = dfa.TOKEN_TYPE;
-                }
-            }
+    // Scans the token starting at or after index i, or returns null once only whitespace is left
+    Token nextToken(String code, int i) {
+        // Skip whitespace before processing tokens
+        while (i < code.length() && Character.isWhitespace(code.charAt(i))) {
+            i++;
+        }
+        if (i >= code.length()) {
+            return null;
+        }
 
-            if (match != null) {
-                tokens.add(new Token(tokenType, match));
+        String match = null;
+        String tokenType = null;
+        int maxLength = 0;
 
-                if(!tokenType.equals("MULTI_COMMENT") && !tokenType.equals("COMMENT"))
-                {
-                    symbolTable.insert(match,tokenType);
-                }
+        // Check delimiters separately
+        if (delimiters.indexOf(code.charAt(i)) >= 0) {
+            String delimiter = String.valueOf(code.charAt(i));
+            if (LexerMetrics.ENABLED) LexerMetrics.INSTANCE.recordToken("DELIMITER");
+            symbolTable.insert(delimiter, "DELIMITER");
+            return new Token("DELIMITER", delimiter, i);
+        }
 
+        // Try every rule for the longest possible token
+        for (TokenMatcher matcher : matchers) {
+            MatchResult result = matcher.match(code, i);
 
-                i += maxLength;
-            } else {
-                ErrorHandler errorHandler = new ErrorHandler();
-                errorHandler.THROW_LEXICAL_ERROR(i,code.charAt(i));
+            if (result.isMatched() && result.getLength() > maxLength) {
+                maxLength = result.getLength();
+                match = code.substring(i, i + maxLength);
+                tokenType = matcher.getTokenType();
             }
         }
+
+        if (match == null) {
+            ErrorHandler errorHandler = new ErrorHandler();
+            errorHandler.THROW_LEXICAL_ERROR(i,code.charAt(i));
+        }
+        if (LexerMetrics.ENABLED) LexerMetrics.INSTANCE.recordToken(tokenType);
+
+        if(isSymbol(tokenType))
+        {
+            symbolTable.insert(match,tokenType);
+        }
+        return new Token(tokenType, match, i);
+    }
+
+    // Token types the rule set keeps out of the symbol table, such as comments
+    boolean isSymbol(String tokenType) {
+        return !nonSymbolTypes.contains(tokenType);
+    }
+
+    public List<Token> tokenizeToStream(String code, Path out) throws IOException {
+        List<Token> tokens = tokenize(code);
+        TokenStreamWriter.write(tokens, nonSymbolTypes, out);
         return tokens;
     }
 
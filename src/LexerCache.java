@@ -0,0 +1,159 @@
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// LRU cache of compiled rule sets keyed by the spec's content hash and bounded by the
+// total table bytes of its entries. Concurrent requests for a spec that is not cached
+// yet wait for a single compilation instead of each compiling it.
+class LexerCache implements LexerCacheMXBean {
+    private final long capacityBytes;
+    private final LinkedHashMap<String, CompiledRuleSet> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<CompiledRuleSet>> compiling = new HashMap<>();
+    private long cachedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long evictedBytes;
+
+    public LexerCache(long capacityBytes) {
+        if (capacityBytes <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacityBytes);
+        }
+        this.capacityBytes = capacityBytes;
+    }
+
+    public Lexer newLexer(RuleSet ruleSet) {
+        return new Lexer(get(ruleSet));
+    }
+
+    public CompiledRuleSet get(RuleSet ruleSet) {
+        String key = ruleSet.getHash();
+        CompletableFuture<CompiledRuleSet> pending;
+        boolean compiler = false;
+        synchronized (this) {
+            CompiledRuleSet cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            pending = compiling.get(key);
+            if (pending == null) {
+                pending = new CompletableFuture<>();
+                compiling.put(key, pending);
+                compiler = true;
+            }
+        }
+        // Waiters block outside the monitor; the compiling thread needs it to publish the result
+        if (!compiler) {
+            return await(pending);
+        }
+
+        // Only the first caller for a key gets here; compile outside the lock
+        try {
+            CompiledRuleSet compiled = ruleSet.compile();
+            synchronized (this) {
+                compiling.remove(key);
+                insert(key, compiled);
+            }
+            pending.complete(compiled);
+            return compiled;
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                compiling.remove(key);
+            }
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static CompiledRuleSet await(CompletableFuture<CompiledRuleSet> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    private void insert(String key, CompiledRuleSet compiled) {
+        if (compiled.getTableBytes() > capacityBytes) {
+            return; // Larger than the whole cache; hand it out without caching
+        }
+        entries.put(key, compiled);
+        cachedBytes += compiled.getTableBytes();
+
+        Iterator<CompiledRuleSet> eldest = entries.values().iterator();
+        while (cachedBytes > capacityBytes && eldest.hasNext()) {
+            CompiledRuleSet evicted = eldest.next();
+            if (evicted == compiled) break;
+            eldest.remove();
+            cachedBytes -= evicted.getTableBytes();
+            evictions++;
+            evictedBytes += evicted.getTableBytes();
+        }
+    }
+
+    public void registerMBean(String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(this, new ObjectName("lexer:type=LexerCache,name=" + ObjectName.quote(name)));
+        } catch (JMException e) {
+            System.err.println("Warning: could not register lexer cache MBean: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    @Override
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    @Override
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized long getEvictedBytes() {
+        return evictedBytes;
+    }
+
+    @Override
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    @Override
+    public long getCapacityBytes() {
+        return capacityBytes;
+    }
+
+    @Override
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        cachedBytes = 0;
+    }
+}
@@ -0,0 +1,19 @@
+public interface LexerCacheMXBean {
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRate();
+
+    long getEvictionCount();
+
+    long getEvictedBytes();
+
+    long getCachedBytes();
+
+    long getCapacityBytes();
+
+    int getEntryCount();
+
+    void clear();
+}
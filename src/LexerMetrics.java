@@ -0,0 +1,104 @@
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+class LexerMetrics implements LexerMetricsMXBean {
+    // Read once so the JIT can drop every guarded call site when metrics are off
+    static final boolean ENABLED = Boolean.getBoolean("lexer.metrics");
+    static final LexerMetrics INSTANCE = new LexerMetrics();
+
+    private final Map<String, LongAdder> tokenCounts = new ConcurrentHashMap<>();
+    private final LongAdder matcherSteps = new LongAdder();
+    private final LongAdder longestMatchFallbacks = new LongAdder();
+    private final LongAdder symbolTableHits = new LongAdder();
+    private final LongAdder symbolTableMisses = new LongAdder();
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer()
+                        .registerMBean(INSTANCE, new ObjectName("lexer:type=LexerMetrics"));
+            } catch (JMException e) {
+                System.err.println("Warning: could not register lexer metrics MBean: " + e.getMessage());
+            }
+        }
+    }
+
+    private LexerMetrics() {
+    }
+
+    void recordToken(String tokenType) {
+        tokenCounts.computeIfAbsent(tokenType, k -> new LongAdder()).increment();
+    }
+
+    // Called once per rule match attempt by every engine (bit-parallel, table DFA, frozen DFA)
+    // with the characters consumed and the accepted prefix length
+    void recordMatch(int steps, int matchLength) {
+        matcherSteps.add(steps);
+        if (matchLength > 0 && steps > matchLength) {
+            longestMatchFallbacks.increment();
+        }
+    }
+
+    void recordSymbolLookup(boolean hit) {
+        if (hit) {
+            symbolTableHits.increment();
+        } else {
+            symbolTableMisses.increment();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public Map<String, Long> getTokenCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : tokenCounts.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return counts;
+    }
+
+    @Override
+    public long getMatcherSteps() {
+        return matcherSteps.sum();
+    }
+
+    @Override
+    public long getLongestMatchFallbacks() {
+        return longestMatchFallbacks.sum();
+    }
+
+    @Override
+    public long getSymbolTableHits() {
+        return symbolTableHits.sum();
+    }
+
+    @Override
+    public long getSymbolTableMisses() {
+        return symbolTableMisses.sum();
+    }
+
+    @Override
+    public double getSymbolTableHitRate() {
+        long hits = symbolTableHits.sum();
+        long total = hits + symbolTableMisses.sum();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public void reset() {
+        tokenCounts.clear();
+        matcherSteps.reset();
+        longestMatchFallbacks.reset();
+        symbolTableHits.reset();
+        symbolTableMisses.reset();
+    }
+}
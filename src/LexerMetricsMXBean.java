@@ -0,0 +1,20 @@
+import java.util.Map;
+
+public interface LexerMetricsMXBean {
+    boolean isEnabled();
+
+    Map<String, Long> getTokenCounts();
+
+    // Characters consumed across all rule match attempts, whichever engine a rule uses
+    long getMatcherSteps();
+
+    long getLongestMatchFallbacks();
+
+    long getSymbolTableHits();
+
+    long getSymbolTableMisses();
+
+    double getSymbolTableHitRate();
+
+    void reset();
+}
@@ -0,0 +1,24 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("lexer.CompilePhase")
+@Label("Lexer Compile Phase")
+@Category({"Lexer", "Compile"})
+@Description("One phase of turning a regex rule into a matcher")
+@StackTrace(false)
+class LexerPhaseEvent extends Event {
+    @Label("Phase")
+    @Description("regexToNFA, glushkov, subsetConstruction or minimize")
+    String phase;
+
+    @Label("Token Type")
+    String tokenType;
+
+    @Label("States")
+    @Description("Number of states (positions for glushkov) after the phase")
+    int states;
+}
@@ -0,0 +1,19 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("lexer.Tokenize")
+@Label("Lexer Tokenize")
+@Category("Lexer")
+@StackTrace(false)
+class LexerTokenizeEvent extends Event {
+    @Label("Input Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Tokens")
+    int tokens;
+}
@@ -0,0 +1,221 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class LoadHarness {
+    private static final long MIN_SIZE = 1L << 10;
+    private static final long MAX_SIZE = 1L << 30;
+
+    private long fileSize = 64L << 10;
+    private int fileCount = 16;
+    private int maxThreads = Runtime.getRuntime().availableProcessors();
+    private int warmupRounds = 1;
+    private long seed = 42;
+    private CorpusGenerator.Mix mix = CorpusGenerator.Mix.MIXED;
+    private Path frozenTables;
+
+    public static LoadHarness fromArgs(String[] args) {
+        LoadHarness harness = new LoadHarness();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--help") || arg.equals("-h")) {
+                printUsage();
+                System.exit(0);
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--size" -> harness.fileSize = parseSize(value);
+                case "--files" -> harness.fileCount = Integer.parseInt(value);
+                case "--threads" -> harness.maxThreads = Integer.parseInt(value);
+                case "--warmup" -> harness.warmupRounds = Integer.parseInt(value);
+                case "--seed" -> harness.seed = Long.parseLong(value);
+                case "--mix" -> harness.mix = CorpusGenerator.parseMix(value);
+                case "--frozen-tables" -> harness.frozenTables = Paths.get(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (harness.fileSize < MIN_SIZE || harness.fileSize > MAX_SIZE) {
+            throw new IllegalArgumentException("--size must be between 1KB and 1GB");
+        }
+        if (harness.fileCount < 1 || harness.maxThreads < 1 || harness.warmupRounds < 0) {
+            throw new IllegalArgumentException("--files and --threads must be positive, --warmup non-negative");
+        }
+        return harness;
+    }
+
+    public static void printUsage() {
+        System.out.println("Usage: Main [--size 64KB] [--files 16] [--threads N] [--mix mixed] [--warmup 1] [--seed 42] [--frozen-tables FILE]");
+        System.out.println("  --size           bytes per generated file, 1KB..1GB (suffixes KB, MB, GB)");
+        System.out.println("  --files          number of generated files");
+        System.out.println("  --threads        highest thread count; runs 1, 2, 4, ... up to N");
+        System.out.println("  --mix            " + Arrays.toString(CorpusGenerator.Mix.values()).toLowerCase());
+        System.out.println("  --warmup         single-threaded passes over the corpus before measuring");
+        System.out.println("  --seed           corpus generator seed");
+        System.out.println("  --frozen-tables  map every rule's tables from FILE, writing it first if missing");
+    }
+
+    static long parseSize(String value) {
+        String upper = value.trim().toUpperCase();
+        long multiplier = 1;
+        if (upper.endsWith("KB")) multiplier = 1L << 10;
+        else if (upper.endsWith("MB")) multiplier = 1L << 20;
+        else if (upper.endsWith("GB")) multiplier = 1L << 30;
+        if (multiplier != 1) upper = upper.substring(0, upper.length() - 2);
+        else if (upper.endsWith("B")) upper = upper.substring(0, upper.length() - 1);
+        return Long.parseLong(upper.trim()) * multiplier;
+    }
+
+    public void run() throws Exception {
+        System.out.printf("Generating %d %s file(s) of %s each (seed %d)%n",
+                fileCount, mix.name().toLowerCase(), formatBytes(fileSize), seed);
+        CorpusGenerator generator = new CorpusGenerator(seed);
+        List<String> corpus = new ArrayList<>();
+        long totalBytes = 0;
+        for (int i = 0; i < fileCount; i++) {
+            String file = generator.generate(fileSize, mix);
+            corpus.add(file);
+            totalBytes += file.length();
+        }
+
+        // One compiled rule set backs every worker; each Lexer only adds its own symbol table
+        CompiledRuleSet rules = compileRules();
+        List<Lexer> lexers = new ArrayList<>();
+        for (int i = 0; i < maxThreads; i++) {
+            lexers.add(new Lexer(rules));
+        }
+
+        for (int round = 0; round < warmupRounds; round++) {
+            for (String file : corpus) {
+                lexers.get(0).tokenize(file);
+            }
+        }
+
+        System.out.println("----------------------------------------------------------------------------------");
+        System.out.printf("%-8s %12s %10s %12s %12s %12s %10s%n",
+                "Threads", "MB/s", "Speedup", "p50 (ms)", "p99 (ms)", "Peak heap", "GC (ms)");
+        System.out.println("----------------------------------------------------------------------------------");
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads)) {
+            RunResult result = runOnce(corpus, lexers.subList(0, threads), totalBytes);
+            if (threads == 1) baseline = result.throughput;
+            System.out.printf("%-8d %12.2f %9.2fx %12.3f %12.3f %12s %10d%n",
+                    threads, result.throughput, result.throughput / baseline,
+                    percentile(result.latencies, 0.50) / 1e6, percentile(result.latencies, 0.99) / 1e6,
+                    formatBytes(result.peakHeap), result.gcMillis);
+        }
+        System.out.println("----------------------------------------------------------------------------------");
+    }
+
+    private CompiledRuleSet compileRules() throws Exception {
+        RuleSet ruleSet = RuleSet.defaults();
+        if (frozenTables == null) {
+            return ruleSet.compile();
+        }
+        if (!Files.exists(frozenTables)) {
+            ruleSet.compile().writeFrozenTables(frozenTables);
+            System.out.println("Wrote frozen tables to " + frozenTables);
+        }
+        CompiledRuleSet rules = CompiledRuleSet.compile(ruleSet, frozenTables);
+        long mapped = rules.getMatchers().stream().filter(matcher -> matcher instanceof FrozenMatcher).count();
+        System.out.printf("Mapped %d of %d rule(s) from %s (%s off-heap)%n",
+                mapped, rules.getMatchers().size(), frozenTables, formatBytes(rules.getTableBytes()));
+        return rules;
+    }
+
+    private int nextThreadCount(int threads) {
+        if (threads == maxThreads) return maxThreads + 1;
+        return Math.min(threads * 2, maxThreads);
+    }
+
+    private RunResult runOnce(List<String> corpus, List<Lexer> lexers, long totalBytes) throws Exception {
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        long gcBefore = totalGcMillis();
+
+        long[] latencies = new long[corpus.size()];
+        AtomicInteger nextFile = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(lexers.size());
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (Lexer lexer : lexers) {
+                workers.add(executor.submit(() -> {
+                    int index;
+                    while ((index = nextFile.getAndIncrement()) < corpus.size()) {
+                        long fileStart = System.nanoTime();
+                        lexer.tokenize(corpus.get(index));
+                        latencies[index] = System.nanoTime() - fileStart;
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+        Arrays.sort(latencies);
+        double throughput = (totalBytes / (double) (1 << 20)) / (elapsed / 1e9);
+        return new RunResult(throughput, latencies, peakHeap, totalGcMillis() - gcBefore);
+    }
+
+    private static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes >= 1L << 30) return String.format("%.1fGB", bytes / (double) (1L << 30));
+        if (bytes >= 1L << 20) return String.format("%.1fMB", bytes / (double) (1L << 20));
+        if (bytes >= 1L << 10) return String.format("%.1fKB", bytes / (double) (1L << 10));
+        return bytes + "B";
+    }
+
+    private static class RunResult {
+        final double throughput;
+        final long[] latencies;
+        final long peakHeap;
+        final long gcMillis;
+
+        RunResult(double throughput, long[] latencies, long peakHeap, long gcMillis) {
+            this.throughput = throughput;
+            this.latencies = latencies;
+            this.peakHeap = peakHeap;
+            this.gcMillis = gcMillis;
+        }
+    }
+}
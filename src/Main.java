@@ -1,10 +1,6 @@
-import java.util.List;
-
 public class Main {
-    public static void main(String[] args) {
-        Lexer lexer = new Lexer();
-        String code = "int x      = (5); bool y = true; char x = 'y'; // This is a comment int x\n int al = 5.5; /* multi line comment */";
-        List<Token> tokens = lexer.tokenize(code);
-        lexer.printSymbolTable();
+    public static void main(String[] args) throws Exception {
+        LoadHarness harness = LoadHarness.fromArgs(args);
+        harness.run();
     }
 }
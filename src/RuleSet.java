@@ -0,0 +1,114 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Lexer rules loaded at runtime. A spec has one rule per line, the token type followed by
+// whitespace and the regex; blank lines and lines starting with '#' are ignored. Earlier
+// rules win ties on match length, as in the built-in rule list. Two optional directives
+// configure the rest of the lexer:
+//   %delimiters ;,(){}            single characters emitted as DELIMITER before any rule is tried
+//   %nonsymbol COMMENT MULTI_COMMENT   token types kept out of the symbol table
+// A spec without them has no delimiter shortcut and interns every token.
+class RuleSet {
+    private final List<RegexRule> rules;
+    private final String delimiters;
+    private final Set<String> nonSymbolTypes;
+    private final String hash;
+
+    private RuleSet(List<RegexRule> rules, String delimiters, Set<String> nonSymbolTypes, String hash) {
+        this.rules = Collections.unmodifiableList(rules);
+        this.delimiters = delimiters;
+        this.nonSymbolTypes = Collections.unmodifiableSet(nonSymbolTypes);
+        this.hash = hash;
+    }
+
+    public static RuleSet load(Path spec) throws IOException {
+        return parse(new String(Files.readAllBytes(spec), StandardCharsets.UTF_8));
+    }
+
+    public static RuleSet parse(String spec) {
+        List<RegexRule> rules = new ArrayList<>();
+        String delimiters = "";
+        Set<String> nonSymbolTypes = new LinkedHashSet<>();
+        String[] lines = spec.split("\\R");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+", 2);
+            if (parts[0].equals("%delimiters")) {
+                delimiters = parts.length < 2 ? "" : parts[1].replaceAll("\\s", "");
+                continue;
+            }
+            if (parts[0].equals("%nonsymbol")) {
+                if (parts.length == 2) nonSymbolTypes.addAll(Arrays.asList(parts[1].split("\\s+")));
+                continue;
+            }
+            if (parts[0].startsWith("%")) {
+                throw new IllegalArgumentException("Rule spec line " + (i + 1) + " has an unknown directive: " + parts[0]);
+            }
+            if (parts.length < 2) {
+                throw new IllegalArgumentException("Rule spec line " + (i + 1) + " needs a token type and a regex: " + line);
+            }
+            rules.add(new RegexRule(parts[1], parts[0]));
+        }
+        if (rules.isEmpty()) {
+            throw new IllegalArgumentException("Rule spec contains no rules");
+        }
+        return new RuleSet(rules, delimiters, nonSymbolTypes, sha256(spec));
+    }
+
+    public static RuleSet defaults() {
+        StringBuilder spec = new StringBuilder();
+        spec.append("%delimiters ").append(Lexer.DEFAULT_DELIMITERS).append('\n');
+        spec.append("%nonsymbol ").append(String.join(" ", Lexer.DEFAULT_NON_SYMBOL_TYPES)).append('\n');
+        for (RegexRule rule : Lexer.defaultRules()) {
+            spec.append(rule.getTokenType()).append(' ').append(rule.getRegex()).append('\n');
+        }
+        return parse(spec.toString());
+    }
+
+    public CompiledRuleSet compile() {
+        return CompiledRuleSet.compile(this);
+    }
+
+    public List<RegexRule> getRules() {
+        return rules;
+    }
+
+    public String getDelimiters() {
+        return delimiters;
+    }
+
+    public Set<String> getNonSymbolTypes() {
+        return nonSymbolTypes;
+    }
+
+    // SHA-256 of the spec text, used as the cache key for compiled lexers
+    public String getHash() {
+        return hash;
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -9,7 +9,9 @@ class SymbolTable {
     }
 
     public void insert(String name, String type) {
-        if (!table.containsKey(name)) {
+        boolean hit = table.containsKey(name);
+        if (LexerMetrics.ENABLED) LexerMetrics.INSTANCE.recordSymbolLookup(hit);
+        if (!hit) {
             table.put(name, new SymbolEntry(name, type));
         }
     }
@@ -1,7 +1,9 @@
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Thompson {
-    private static int stateCounter = 0;
+    // Atomic because LexerCache may compile several rule sets on different threads at once
+    private static final AtomicInteger stateCounter = new AtomicInteger();
 
     // Convert Regular Expression (RE) to an NFA
     public static NFA regexToNFA(String regex) {
@@ -165,7 +167,7 @@ public class Thompson {
         NFA finalNFA = nfaStack.pop();
 
         if (startAnchored) {
-            State newStart = new State(stateCounter++);
+            State newStart = new State(stateCounter.getAndIncrement());
             newStart.addTransition('\0', finalNFA.startState);
             finalNFA = new NFA(newStart, finalNFA.finalState);
         }
@@ -178,8 +180,8 @@ public class Thompson {
     }
 
     public static NFA createAnyCharNFA() {
-        State start = new State(stateCounter++);
-        State end = new State(stateCounter++);
+        State start = new State(stateCounter.getAndIncrement());
+        State end = new State(stateCounter.getAndIncrement());
         for (char c = 32; c < 127; c++) { // All printable ASCII characters
             start.addTransition(c, end);
         }
@@ -197,15 +199,15 @@ public class Thompson {
     }
 
     public static NFA createSingleCharNFA(char c) {
-        State start = new State(stateCounter++);
-        State end = new State(stateCounter++);
+        State start = new State(stateCounter.getAndIncrement());
+        State end = new State(stateCounter.getAndIncrement());
         start.addTransition(c, end);
         return new NFA(start, end);
     }
 
     public static NFA createCharacterClassNFA(String charClass) {
-        State start = new State(stateCounter++);
-        State end = new State(stateCounter++);
+        State start = new State(stateCounter.getAndIncrement());
+        State end = new State(stateCounter.getAndIncrement());
 
         for (int i = 0; i < charClass.length(); i++) {
             char c = charClass.charAt(i);
@@ -247,8 +249,8 @@ public class Thompson {
 
     // Union: Creates an NFA for A|B
     public static NFA union(NFA nfa1, NFA nfa2) {
-        State start = new State(stateCounter++);
-        State end = new State(stateCounter++);
+        State start = new State(stateCounter.getAndIncrement());
+        State end = new State(stateCounter.getAndIncrement());
 
         start.addTransition('\0', nfa1.startState);
         start.addTransition('\0', nfa2.startState);
@@ -271,8 +273,8 @@ public class Thompson {
 
     // Kleene Star: Creates an NFA for A*
     public static NFA kleeneStar(NFA nfa) {
-        State start = new State(stateCounter++);
-        State end = new State(stateCounter++);
+        State start = new State(stateCounter.getAndIncrement());
+        State end = new State(stateCounter.getAndIncrement());
 
         start.addTransition('\0', nfa.startState);
         start.addTransition('\0', end);
@@ -290,8 +292,8 @@ public class Thompson {
 
     // Optional (A?): Zero or one occurrence
     public static NFA optional(NFA nfa) {
-        State start = new State(stateCounter++);
-        State end = new State(stateCounter++);
+        State start = new State(stateCounter.getAndIncrement());
+        State end = new State(stateCounter.getAndIncrement());
 
         start.addTransition('\0', nfa.startState);
         start.addTransition('\0', end);
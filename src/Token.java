@@ -1,10 +1,16 @@
 class Token {
     private final String type;
     private final String value;
+    private final int offset;
 
     public Token(String type, String value) {
+        this(type, value, -1);
+    }
+
+    public Token(String type, String value, int offset) {
         this.type = type;
         this.value = value;
+        this.offset = offset;
     }
 
     public String getType() {
@@ -14,4 +20,8 @@ class Token {
     public String getValue() {
         return value;
     }
+
+    public int getOffset() {
+        return offset;
+    }
 }
\ No newline at end of file
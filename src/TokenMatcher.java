@@ -0,0 +1,11 @@
+interface TokenMatcher {
+    // Longest prefix of input starting at index start accepted by this rule
+    MatchResult match(String input, int start);
+
+    String getTokenType();
+
+    // Approximate heap footprint of the matching tables, used to size the lexer cache
+    long tableBytes();
+
+    void printTransitionTable();
+}
@@ -0,0 +1,125 @@
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Publishes the tokens of one source string, lexing only as many as the subscriber has requested.
+// Signals are delivered on the given executor (the requesting thread by default). A Lexer is not
+// thread-safe, so a publisher accepts a single subscriber.
+class TokenPublisher implements Flow.Publisher<Token> {
+    private final Lexer lexer;
+    private final String code;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    public TokenPublisher(Lexer lexer, String code) {
+        this(lexer, code, Runnable::run);
+    }
+
+    public TokenPublisher(Lexer lexer, String code, Executor executor) {
+        this.lexer = lexer;
+        this.code = code;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Token> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("TokenPublisher allows only one subscriber"));
+            return;
+        }
+        TokenSubscription subscription = new TokenSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    private class TokenSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super Token> subscriber;
+        private final TokenSpliterator tokens = new TokenSpliterator(lexer, code);
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pendingDrains = new AtomicInteger();
+        private volatile boolean cancelled;
+        private Throwable invalidRequest;
+
+        TokenSubscription(Flow.Subscriber<? super Token> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Requested " + n + " tokens, must be positive");
+            } else {
+                // Saturate at Long.MAX_VALUE, which means unbounded demand
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            scheduleDrain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void scheduleDrain() {
+            // Only the caller that moves pendingDrains off zero runs the loop, so a subscriber
+            // calling request() from onNext never recurses into the lexer
+            if (pendingDrains.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                if (invalidRequest != null && !cancelled) {
+                    cancelled = true;
+                    subscriber.onError(invalidRequest);
+                }
+                while (!cancelled) {
+                    // Completion needs no demand, so a subscriber that asked for exactly the
+                    // number of tokens in the input still gets onComplete
+                    if (!tokens.hasRemaining()) {
+                        cancelled = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                    if (demand.get() == 0) {
+                        break;
+                    }
+                    Token token;
+                    try {
+                        token = tokens.next();
+                    } catch (RuntimeException e) {
+                        cancelled = true;
+                        subscriber.onError(e);
+                        return;
+                    }
+                    if (demand.get() != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+                    try {
+                        subscriber.onNext(token);
+                    } catch (RuntimeException e) {
+                        // A failing subscriber breaks the contract; stop and let the exception surface
+                        cancelled = true;
+                        throw e;
+                    }
+                }
+                missed = pendingDrains.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+// Pull-based token source: each tryAdvance lexes exactly one more token
+class TokenSpliterator implements Spliterator<Token> {
+    private final Lexer lexer;
+    private final String code;
+    private int position;
+
+    public TokenSpliterator(Lexer lexer, String code) {
+        this.lexer = lexer;
+        this.code = code;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Token> action) {
+        Token token = next();
+        if (token == null) {
+            return false;
+        }
+        action.accept(token);
+        return true;
+    }
+
+    // Lexes the next token, or returns null at the end of the input
+    Token next() {
+        if (!hasRemaining()) {
+            return null;
+        }
+        Token token = lexer.nextToken(code, position);
+        position = token.getOffset() + token.getValue().length();
+        return token;
+    }
+
+    // True while anything other than whitespace is left to lex
+    boolean hasRemaining() {
+        while (position < code.length() && Character.isWhitespace(code.charAt(position))) {
+            position++;
+        }
+        return position < code.length();
+    }
+
+    @Override
+    public Spliterator<Token> trySplit() {
+        return null; // Token boundaries are only known after lexing everything before them
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+}
@@ -0,0 +1,142 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Cursor over a file written by TokenStreamWriter. The file is memory-mapped
+// read-only and tokens are decoded in place on next(); no Token objects are built.
+// A reader is not thread-safe, but any number of readers may map the same file.
+class TokenStreamReader {
+    private final ByteBuffer buffer;
+    private final String[] types;
+    private final String[] symbols;
+    private final int[] symbolTypes;
+    private final int tokenCount;
+    private final int tokensStart;
+
+    private int index;
+    private int type;
+    private int offset;
+    private int length;
+    private int symbol;
+
+    public TokenStreamReader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        byte[] magic = new byte[TokenStreamWriter.MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, TokenStreamWriter.MAGIC)) {
+            throw new IOException("Not a token stream: " + file);
+        }
+        int version = buffer.get();
+        if (version != TokenStreamWriter.VERSION) {
+            throw new IOException("Unsupported token stream version " + version + " in " + file);
+        }
+
+        types = new String[readVarint()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = readString();
+        }
+
+        symbols = new String[readVarint()];
+        symbolTypes = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            symbolTypes[i] = readVarint();
+            symbols[i] = readString();
+        }
+
+        tokenCount = readVarint();
+        tokensStart = buffer.position();
+        rewind();
+    }
+
+    public boolean next() {
+        if (index >= tokenCount) {
+            return false;
+        }
+        type = readVarint();
+        offset = offset + length + readVarint();
+        length = readVarint();
+        symbol = readVarint() - 1;
+        index++;
+        return true;
+    }
+
+    public void rewind() {
+        buffer.position(tokensStart);
+        index = 0;
+        offset = 0;
+        length = 0;
+        type = -1;
+        symbol = -1;
+    }
+
+    public int tokenCount() {
+        return tokenCount;
+    }
+
+    public int typeId() {
+        return type;
+    }
+
+    public String type() {
+        return types[type];
+    }
+
+    public int offset() {
+        return offset;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    // Interned symbol text for the current token, or null for tokens (such as comments)
+    // that are not in the symbol table; their text is source.substring(offset, offset + length)
+    public String symbol() {
+        return symbol < 0 ? null : symbols[symbol];
+    }
+
+    public int symbolId() {
+        return symbol;
+    }
+
+    public String[] types() {
+        return types.clone();
+    }
+
+    public String symbolAt(int id) {
+        return symbols[id];
+    }
+
+    public String symbolTypeAt(int id) {
+        return types[symbolTypes[id]];
+    }
+
+    public int symbolCount() {
+        return symbols.length;
+    }
+
+    private int readVarint() {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private String readString() {
+        byte[] bytes = new byte[readVarint()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
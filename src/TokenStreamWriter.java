@@ -0,0 +1,90 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Binary token stream layout (all integers are unsigned LEB128 varints):
+//   magic "LTOK", version byte
+//   type table:   count, then per type: byte length, UTF-8 bytes
+//   symbol table: count, then per symbol: type id, byte length, UTF-8 bytes
+//   tokens:       count, then per token: type id, offset delta from the end of
+//                 the previous token, length, symbol id + 1 (0 when not a symbol)
+class TokenStreamWriter {
+    static final byte[] MAGIC = {'L', 'T', 'O', 'K'};
+    static final int VERSION = 1;
+
+    // Tokens whose type is in nonSymbolTypes get no symbol table entry, as in the lexer
+    public static void write(List<Token> tokens, Set<String> nonSymbolTypes, Path out) throws IOException {
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(out), 1 << 16)) {
+            write(tokens, nonSymbolTypes, stream);
+        }
+    }
+
+    public static void write(List<Token> tokens, Set<String> nonSymbolTypes, OutputStream out) throws IOException {
+        Map<String, Integer> typeIds = new LinkedHashMap<>();
+        for (Token token : tokens) {
+            typeIds.putIfAbsent(token.getType(), typeIds.size());
+        }
+        // Symbols come from this stream's own tokens in first-seen order, typed like the lexer's
+        // symbol table (first occurrence wins), so ids do not depend on what the lexer saw before
+        List<SymbolEntry> symbols = new ArrayList<>();
+        Map<String, Integer> symbolIds = new HashMap<>();
+        for (Token token : tokens) {
+            if (!nonSymbolTypes.contains(token.getType()) && !symbolIds.containsKey(token.getValue())) {
+                symbolIds.put(token.getValue(), symbols.size());
+                symbols.add(new SymbolEntry(token.getValue(), token.getType()));
+            }
+        }
+
+        out.write(MAGIC);
+        out.write(VERSION);
+
+        writeVarint(out, typeIds.size());
+        for (String type : typeIds.keySet()) {
+            writeString(out, type);
+        }
+
+        writeVarint(out, symbols.size());
+        for (SymbolEntry entry : symbols) {
+            writeVarint(out, typeIds.get(entry.getType()));
+            writeString(out, entry.getName());
+        }
+
+        writeVarint(out, tokens.size());
+        int previousEnd = 0;
+        for (Token token : tokens) {
+            if (token.getOffset() < previousEnd) {
+                throw new IllegalArgumentException("Token offsets must be increasing, got " + token.getOffset()
+                        + " after " + previousEnd);
+            }
+            Integer symbolId = !nonSymbolTypes.contains(token.getType()) ? symbolIds.get(token.getValue()) : null;
+            writeVarint(out, typeIds.get(token.getType()));
+            writeVarint(out, token.getOffset() - previousEnd);
+            writeVarint(out, token.getValue().length());
+            writeVarint(out, symbolId == null ? 0 : symbolId + 1);
+            previousEnd = token.getOffset() + token.getValue().length();
+        }
+    }
+
+    private static void writeString(OutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
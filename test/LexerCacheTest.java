@@ -0,0 +1,76 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Run with: java -cp <classes> LexerCacheTest
+public class LexerCacheTest {
+    private static final int ROUNDS = 200;
+    private static final int THREADS = 8;
+
+    public static void main(String[] args) throws Exception {
+        concurrentFirstRequestsCompileOnce();
+        sequentialRequestsHitTheCache();
+        System.out.println("LexerCacheTest passed");
+    }
+
+    // Regression test: a second caller used to wait for the in-flight compilation while holding
+    // the cache monitor, and the compiling thread then blocked forever trying to publish it
+    private static void concurrentFirstRequestsCompileOnce() throws Exception {
+        // Daemon threads, so a deadlocked round fails the test instead of keeping the JVM alive
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS, task -> {
+            Thread thread = new Thread(task);
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                LexerCache cache = new LexerCache(1 << 20);
+                CyclicBarrier start = new CyclicBarrier(THREADS);
+                List<Future<CompiledRuleSet>> requests = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    requests.add(executor.submit(() -> {
+                        start.await();
+                        return cache.get(RuleSet.defaults());
+                    }));
+                }
+
+                Set<CompiledRuleSet> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (Future<CompiledRuleSet> request : requests) {
+                    try {
+                        distinct.add(request.get(10, TimeUnit.SECONDS));
+                    } catch (TimeoutException e) {
+                        throw new AssertionError("Round " + round + ": concurrent first requests deadlocked", e);
+                    }
+                }
+                check(distinct.size() == 1, "Round " + round + ": expected one compilation, got " + distinct.size());
+                check(cache.getHitCount() + cache.getMissCount() == THREADS,
+                        "Round " + round + ": every request must count as a hit or a miss");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void sequentialRequestsHitTheCache() {
+        LexerCache cache = new LexerCache(1 << 20);
+        CompiledRuleSet first = cache.get(RuleSet.defaults());
+        CompiledRuleSet second = cache.get(RuleSet.defaults());
+        check(first == second, "Second request should return the cached rule set");
+        check(cache.getHitCount() == 1 && cache.getMissCount() == 1,
+                "Expected 1 hit and 1 miss, got " + cache.getHitCount() + " and " + cache.getMissCount());
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}